@@ -1,6 +1,7 @@
 package com.akashgill3.githubcrawler;
 
 import com.akashgill3.githubcrawler.github.config.GitHubProperties;
+import com.akashgill3.githubcrawler.github.config.ReplicaProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -8,7 +9,7 @@ import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication
 @EnableCaching
-@EnableConfigurationProperties(GitHubProperties.class)
+@EnableConfigurationProperties({GitHubProperties.class, ReplicaProperties.class})
 public class GithubCrawlerApplication {
 
 	public static void main(String[] args) {
@@ -1,7 +1,8 @@
 package com.akashgill3.githubcrawler.github.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "github")
-public record GitHubProperties(String token, String repository) {
+public record GitHubProperties(String token, String repository, @DefaultValue("main") String branch) {
 }
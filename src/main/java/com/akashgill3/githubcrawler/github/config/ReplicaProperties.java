@@ -0,0 +1,31 @@
+package com.akashgill3.githubcrawler.github.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configures how this instance bootstraps its index from a peer replica.
+ *
+ * @param peerUrl          base URL of a running instance to pull the index snapshot from, blank to always crawl GitHub
+ * @param timeout          connect and read timeout for the snapshot request
+ * @param retries          how many more times to ask a peer that is not listening or still indexing before crawling
+ * @param retryInterval    wait before the first retry, doubled after each further attempt
+ * @param maxRetryInterval upper bound for the doubled wait
+ * <p>
+ * The defaults wait 1 + 2 + 4 + 8 + 16 + 15 * 30 = 481 seconds, about eight minutes, which covers a cold crawl
+ * of the peer so that replicas started together do not all fall back to GitHub.
+ */
+@ConfigurationProperties(prefix = "replica")
+public record ReplicaProperties(
+        String peerUrl,
+        @DefaultValue("10s") Duration timeout,
+        @DefaultValue("20") int retries,
+        @DefaultValue("1s") Duration retryInterval,
+        @DefaultValue("30s") Duration maxRetryInterval) {
+
+    public boolean bootstrapFromPeer() {
+        return peerUrl != null && !peerUrl.isBlank();
+    }
+}
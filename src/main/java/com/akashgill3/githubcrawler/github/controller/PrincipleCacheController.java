@@ -3,10 +3,16 @@ package com.akashgill3.githubcrawler.github.controller;
 
 import com.akashgill3.githubcrawler.github.service.PrincipleCache;
 import com.akashgill3.githubcrawler.github.model.Principle;
+import com.akashgill3.githubcrawler.github.model.PrincipleSnapshot;
+import com.akashgill3.githubcrawler.github.service.PrincipleSnapshotCodec;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 
@@ -15,9 +21,11 @@ import java.util.Map;
 public class PrincipleCacheController {
 
     private final PrincipleCache principleCache;
+    private final PrincipleSnapshotCodec snapshotCodec;
 
-    public PrincipleCacheController(PrincipleCache principleCache) {
+    public PrincipleCacheController(PrincipleCache principleCache, PrincipleSnapshotCodec snapshotCodec) {
         this.principleCache = principleCache;
+        this.snapshotCodec = snapshotCodec;
     }
 
     @GetMapping("/principles")
@@ -29,5 +37,24 @@ public class PrincipleCacheController {
     public Principle getPrincipleByName(@PathVariable String name) {
         return principleCache.get(name);
     }
-}
 
+    /**
+     * Streams the index as a binary snapshot for other replicas to bootstrap from.
+     * Responds with 503 until the initial index is complete, so peers never bootstrap from a partial crawl.
+     */
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> getSnapshot() {
+        if (!principleCache.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        PrincipleSnapshot snapshot = principleCache.snapshot();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("X-Snapshot-Generation", String.valueOf(snapshot.generation()));
+        if (snapshot.commitId() != null) {
+            response.header("X-Snapshot-Commit", snapshot.commitId());
+        }
+        return response.body(out -> snapshotCodec.write(snapshot, out));
+    }
+}
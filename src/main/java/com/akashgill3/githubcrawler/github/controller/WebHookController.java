@@ -1,5 +1,6 @@
 package com.akashgill3.githubcrawler.github.controller;
 
+import com.akashgill3.githubcrawler.github.config.GitHubProperties;
 import com.akashgill3.githubcrawler.github.service.GitHubService;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
@@ -15,9 +16,11 @@ import java.util.Set;
 public class WebHookController {
     private static final Logger log = LoggerFactory.getLogger(WebHookController.class);
     private final GitHubService gitHubService;
+    private final GitHubProperties gitHubProperties;
 
-    public WebHookController(GitHubService gitHubService) {
+    public WebHookController(GitHubService gitHubService, GitHubProperties gitHubProperties) {
         this.gitHubService = gitHubService;
+        this.gitHubProperties = gitHubProperties;
     }
 
     @PostMapping("/github")
@@ -25,19 +28,19 @@ public class WebHookController {
         String ref = payload.path("ref").asText();
         log.info("Push event for ref {}", ref);
 
-        // Check if it's a push to the main branch
-        if (ref.equals("refs/heads/main")) {
+        // Check if it's a push to the indexed branch
+        if (ref.equals("refs/heads/" + gitHubProperties.branch())) {
             // Extract modified file paths from the payload
             Set<String> affectedPrinciples = extractAffectedPrinciples(payload);
 
             if (!affectedPrinciples.isEmpty()) {
                 log.info("Affected principles to reindex: {}", affectedPrinciples);
-                gitHubService.reindexPrinciples(affectedPrinciples);
+                gitHubService.reindexPrinciples(affectedPrinciples, extractCommitId(payload));
             } else {
                 log.info("No principles affected by this push");
             }
         } else {
-            log.info("Push to non-main branch, ignoring");
+            log.info("Push to non-indexed branch, ignoring");
         }
     }
 
@@ -55,6 +58,17 @@ public class WebHookController {
         return principles;
     }
 
+    /**
+     * Extracts the SHA of the pushed commit
+     */
+    private String extractCommitId(JsonNode payload) {
+        String after = payload.path("after").asText(null);
+        if (after != null && !after.isEmpty()) {
+            return after;
+        }
+        return payload.path("head_commit").path("id").asText(null);
+    }
+
     /**
      * Extracts principle names from file paths and adds them to the set
      */
@@ -0,0 +1,26 @@
+package com.akashgill3.githubcrawler.github.exception;
+
+/**
+ * Exception thrown when the index snapshot cannot be fetched from a peer instance
+ */
+public class PeerSnapshotException extends RuntimeException {
+
+    /**
+     * Constructs a new exception with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public PeerSnapshotException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new exception with the specified detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause the cause
+     */
+    public PeerSnapshotException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
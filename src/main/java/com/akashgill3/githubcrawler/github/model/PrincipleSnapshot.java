@@ -0,0 +1,9 @@
+package com.akashgill3.githubcrawler.github.model;
+
+import java.util.Map;
+
+public record PrincipleSnapshot(
+        long generation,
+        String commitId,
+        Map<String, Principle> principles) {
+}
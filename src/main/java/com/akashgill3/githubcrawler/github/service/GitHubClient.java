@@ -66,7 +66,7 @@ public class GitHubClient {
     public List<GHContent> getRootContent() {
         try {
             ensureInitialized();
-            return repository.getDirectoryContent("/");
+            return repository.getDirectoryContent("/", properties.branch());
         } catch (IOException e) {
             log.error("Failed to get root content", e);
             throw new GitHubClientException("Failed to get root content", e);
@@ -83,7 +83,7 @@ public class GitHubClient {
     public List<GHContent> getDirectoryContent(String path) {
         try {
             ensureInitialized();
-            return repository.getDirectoryContent(path);
+            return repository.getDirectoryContent(path, properties.branch());
         } catch (IOException e) {
             log.error("Failed to get directory content: {}", path, e);
             throw new GitHubClientException("Failed to get directory content: " + path, e);
@@ -100,7 +100,7 @@ public class GitHubClient {
     public String getFileContent(String path) {
         try {
             ensureInitialized();
-            try (InputStream is = repository.getFileContent(path).read()) {
+            try (InputStream is = repository.getFileContent(path, properties.branch()).read()) {
                 return new String(is.readAllBytes(), StandardCharsets.UTF_8);
             }
         } catch (IOException e) {
@@ -109,6 +109,22 @@ public class GitHubClient {
         }
     }
 
+    /**
+     * Get the SHA of the latest commit on the indexed branch
+     *
+     * @return The SHA of the head commit
+     * @throws GitHubClientException if the branch cannot be retrieved
+     */
+    public String getHeadCommitSha() {
+        try {
+            ensureInitialized();
+            return repository.getBranch(properties.branch()).getSHA1();
+        } catch (IOException e) {
+            log.error("Failed to get head commit", e);
+            throw new GitHubClientException("Failed to get head commit", e);
+        }
+    }
+
     /**
      * Ensures the GitHub client and repository are initialized.
      * This method is called internally before making any GitHub API calls.
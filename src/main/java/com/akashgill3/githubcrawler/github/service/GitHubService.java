@@ -1,6 +1,7 @@
 package com.akashgill3.githubcrawler.github.service;
 
 import com.akashgill3.githubcrawler.github.exception.GitHubClientException;
+import com.akashgill3.githubcrawler.github.exception.PeerSnapshotException;
 import com.akashgill3.githubcrawler.github.model.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -14,12 +15,14 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class GitHubService {
@@ -29,46 +32,139 @@ public class GitHubService {
     private final ObjectMapper objectMapper;
     private final PrincipleCache principleCache;
     private final ExecutorService executorService;
-
-    public GitHubService(GitHubClient gitHubClient, ObjectMapper objectMapper, PrincipleCache principleCache, ExecutorService executorService) {
+    private final PeerSnapshotClient peerSnapshotClient;
+    // Pushes received before the startup index is built are held back, so a restore cannot overwrite them
+    private final Object startupLock = new Object();
+    private boolean startupComplete; // guarded by startupLock
+    private final Set<String> deferredPrinciples = new HashSet<>(); // guarded by startupLock
+    private String deferredCommitId; // guarded by startupLock
+
+    public GitHubService(GitHubClient gitHubClient, ObjectMapper objectMapper, PrincipleCache principleCache, ExecutorService executorService, PeerSnapshotClient peerSnapshotClient) {
         this.githubClient = gitHubClient;
         this.objectMapper = objectMapper;
         this.principleCache = principleCache;
         this.executorService = executorService;
+        this.peerSnapshotClient = peerSnapshotClient;
     }
 
     @EventListener(ApplicationReadyEvent.class)
     public void indexOnStartup() {
         CompletableFuture.runAsync(() -> {
             try {
-                githubClient.init();
-
-                log.info("Starting github indexing");
-                log.info("Start of Indexing, remaining rate limit: {}", githubClient.getRateLimit().getRemaining());
-                Instant start = Instant.now();
+                // Only fall back to crawling GitHub when no peer could hand us its index
+                if (!bootstrapFromPeer()) {
+                    indexFromGitHub();
+                }
+            } finally {
+                completeStartup();
+            }
+        }, executorService);
+    }
 
-                // Create and wait for the completion of the indexing operation
-                indexPrinciples().join();
+    private void indexFromGitHub() {
+        try {
+            githubClient.init();
 
-                Instant end = Instant.now();
-                log.info("Indexed data in {} ms", Duration.between(start, end).toMillis());
-                log.info("End of Indexing, remaining rate limit: {}", githubClient.getRateLimit().getRemaining());
-            } catch (GitHubClientException e) {
-                log.error("Failed to index data", e);
+            log.info("Starting github indexing");
+            log.info("Start of Indexing, remaining rate limit: {}", githubClient.getRateLimit().getRemaining());
+            Instant start = Instant.now();
+            long update = principleCache.beginUpdate();
+
+            // Record the commit before crawling so the snapshot never claims to be newer than its content
+            String commitId = getHeadCommitSha();
+
+            // Create and wait for the completion of the indexing operation
+            int failed = indexPrinciples().join();
+            if (failed == 0) {
+                principleCache.recordCommit(update, commitId);
+                principleCache.markReady();
+            } else {
+                // Stay unready so peers crawl for themselves instead of copying the gaps
+                log.error("{} principles failed to index, not serving snapshots to peers", failed);
             }
-        }, executorService);
+
+            Instant end = Instant.now();
+            log.info("Indexed data in {} ms", Duration.between(start, end).toMillis());
+            log.info("End of Indexing, remaining rate limit: {}", githubClient.getRateLimit().getRemaining());
+        } catch (GitHubClientException e) {
+            log.error("Failed to index data", e);
+        }
+    }
+
+    /**
+     * Lets reindexing run and replays any pushes that arrived while the startup index was being built.
+     */
+    private void completeStartup() {
+        Set<String> deferred;
+        String commitId;
+        synchronized (startupLock) {
+            startupComplete = true;
+            deferred = Set.copyOf(deferredPrinciples);
+            commitId = deferredCommitId;
+            deferredPrinciples.clear();
+        }
+        if (!deferred.isEmpty()) {
+            log.info("Replaying reindex of {} principles pushed during startup", deferred.size());
+            reindexPrinciples(deferred, commitId);
+        }
+    }
+
+    /**
+     * Looks up the head commit for snapshot metadata only, so a failure must not stop the crawl.
+     *
+     * @return The head commit SHA, or null if it cannot be retrieved
+     */
+    private String getHeadCommitSha() {
+        try {
+            return githubClient.getHeadCommitSha();
+        } catch (GitHubClientException e) {
+            // GitHubClient has already logged the failure with its cause
+            log.warn("Indexing without a commit id: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the cache with the index snapshot of the configured peer, if any.
+     *
+     * @return true if the cache was populated from the peer
+     */
+    private boolean bootstrapFromPeer() {
+        if (!peerSnapshotClient.isEnabled()) {
+            return false;
+        }
+        try {
+            Instant start = Instant.now();
+            PrincipleSnapshot snapshot = peerSnapshotClient.fetchSnapshot();
+            principleCache.restore(snapshot);
+
+            Instant end = Instant.now();
+            log.info("Bootstrapped {} principles from peer at generation {} (commit {}) in {} ms",
+                    snapshot.principles().size(), snapshot.generation(), snapshot.commitId(),
+                    Duration.between(start, end).toMillis());
+            return true;
+        } catch (PeerSnapshotException e) {
+            log.warn("Failed to bootstrap from peer, falling back to github indexing: {}", e.getMessage(), e.getCause());
+            return false;
+        } catch (RuntimeException e) {
+            // Anything else is unexpected, but the crawl must still run rather than leave the cache empty
+            log.error("Failed to bootstrap from peer, falling back to github indexing", e);
+            return false;
+        }
     }
 
     /**
      * Indexes All Principles.
-     * Returns a CompletableFuture that completes when all indexing is done.
+     * Returns a CompletableFuture that completes with the number of principles that failed
+     * to index once all indexing is done.
      */
-    private CompletableFuture<Void> indexPrinciples() {
+    private CompletableFuture<Integer> indexPrinciples() {
         try {
             githubClient.init();
             List<GHContent> rootContent = githubClient.getRootContent();
 
             List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            AtomicInteger failures = new AtomicInteger();
 
             for (GHContent content : rootContent) {
                 if (content.isDirectory()) {
@@ -79,6 +175,7 @@ public class GitHubService {
                             })
                             .exceptionally(e -> {
                                 log.error("Failed to index Principle: {}", content.getName(), e);
+                                failures.incrementAndGet();
                                 return null;
                             });
                     tasks.add(task);
@@ -86,15 +183,33 @@ public class GitHubService {
             }
 
             // Return a future that completes when all tasks are done
-            return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]));
+            return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                    .thenApply(ignored -> failures.get());
         } catch (GitHubClientException e) {
-            CompletableFuture<Void> future = new CompletableFuture<>();
+            CompletableFuture<Integer> future = new CompletableFuture<>();
             future.completeExceptionally(e);
             return future;
         }
     }
 
-    public void reindexPrinciples(Set<String> affectedPrinciples) {
+    /**
+     * Reindexes the given principles after a push. Pushes received before the startup index
+     * is complete are deferred until it is, then reindexed together.
+     *
+     * @param affectedPrinciples Names of the principles touched by the push
+     * @param commitId           SHA of the pushed commit, recorded as the cache's commit id
+     */
+    public void reindexPrinciples(Set<String> affectedPrinciples, String commitId) {
+        synchronized (startupLock) {
+            if (!startupComplete) {
+                deferredPrinciples.addAll(affectedPrinciples);
+                deferredCommitId = commitId;
+                log.info("Startup indexing in progress, deferring reindex of {}", affectedPrinciples);
+                return;
+            }
+        }
+        // Taken in push order, before the executor can reorder the reindexes
+        long update = principleCache.beginUpdate();
         CompletableFuture.runAsync(() -> {
             try {
                 log.info("Starting selective reindexing of {} principles", affectedPrinciples.size());
@@ -103,6 +218,7 @@ public class GitHubService {
                 githubClient.init();
                 // Process each affected principle
                 List<CompletableFuture<Void>> tasks = new ArrayList<>();
+                AtomicInteger failures = new AtomicInteger();
 
                 for (String principleName : affectedPrinciples) {
                     log.info("Reindexing principle: {}", principleName);
@@ -115,6 +231,7 @@ public class GitHubService {
                         log.info("Principle: {} reindexed successfully", principleName);
                     }).exceptionally(ex -> {
                         log.error("Failed to reindex principle: {}", principleName, ex);
+                        failures.incrementAndGet();
                         return null;
                     });
 
@@ -123,6 +240,12 @@ public class GitHubService {
 
                 // Wait for all reindexing tasks to complete
                 CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+                // The cache only holds this commit if every affected principle made it in
+                if (failures.get() > 0) {
+                    log.error("{} principles failed to reindex, not recording commit {}", failures.get(), commitId);
+                } else if (!principleCache.recordCommit(update, commitId)) {
+                    log.info("Not recording commit {}, a later push was already reindexed", commitId);
+                }
 
                 Instant end = Instant.now();
                 log.info("Reindexed {} principles in {} ms", affectedPrinciples.size(), Duration.between(start, end).toMillis());
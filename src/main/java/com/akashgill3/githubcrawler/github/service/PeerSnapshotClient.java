@@ -0,0 +1,143 @@
+package com.akashgill3.githubcrawler.github.service;
+
+import com.akashgill3.githubcrawler.github.config.ReplicaProperties;
+import com.akashgill3.githubcrawler.github.exception.PeerSnapshotException;
+import com.akashgill3.githubcrawler.github.model.PrincipleSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+
+@Component
+public class PeerSnapshotClient {
+    private static final Logger log = LoggerFactory.getLogger(PeerSnapshotClient.class);
+    private static final String SNAPSHOT_PATH = "/api/snapshot";
+
+    private final ReplicaProperties properties;
+    private final PrincipleSnapshotCodec codec;
+    // Built once and shared by every attempt, null when no peer is configured
+    private final RestClient restClient;
+
+    public PeerSnapshotClient(ReplicaProperties properties, RestClient.Builder restClientBuilder, PrincipleSnapshotCodec codec) {
+        this.properties = properties;
+        this.codec = codec;
+        this.restClient = properties.bootstrapFromPeer() ? createRestClient(restClientBuilder) : null;
+    }
+
+    /**
+     * Whether a peer has been configured to bootstrap from.
+     */
+    public boolean isEnabled() {
+        return properties.bootstrapFromPeer();
+    }
+
+    /**
+     * Streams the index snapshot from the configured peer. A peer that is not listening yet or
+     * still indexing is retried with capped exponential backoff, since replicas usually start together.
+     *
+     * @return The snapshot served by the peer
+     * @throws PeerSnapshotException if the peer stays unavailable, errors, or sends a corrupt snapshot
+     */
+    public PrincipleSnapshot fetchSnapshot() {
+        if (restClient == null) {
+            throw new PeerSnapshotException("No peer configured to fetch a snapshot from");
+        }
+        Duration backoff = properties.retryInterval();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return requestSnapshot();
+            } catch (PeerUnavailableException e) {
+                if (attempt >= properties.retries()) {
+                    throw e;
+                }
+                log.info("{}, retrying in {} ms", e.getMessage(), backoff.toMillis());
+                sleep(backoff);
+                backoff = min(backoff.multipliedBy(2), properties.maxRetryInterval());
+            }
+        }
+    }
+
+    private PrincipleSnapshot requestSnapshot() {
+        log.info("Fetching index snapshot from peer: {}", properties.peerUrl());
+        try {
+            return restClient.get()
+                    .uri(SNAPSHOT_PATH)
+                    .accept(MediaType.APPLICATION_OCTET_STREAM)
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE)) {
+                            throw new PeerUnavailableException("Peer " + properties.peerUrl() + " is still indexing", null);
+                        }
+                        if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK)) {
+                            throw new PeerSnapshotException("Peer " + properties.peerUrl()
+                                    + " did not serve a snapshot, status: " + response.getStatusCode());
+                        }
+                        try (InputStream body = response.getBody()) {
+                            return codec.read(body);
+                        }
+                    });
+        } catch (ResourceAccessException e) {
+            // Connect failures mean the peer is not listening yet, anything else is a broken transfer
+            if (isConnectFailure(e)) {
+                throw new PeerUnavailableException("Peer " + properties.peerUrl() + " is not reachable", e);
+            }
+            throw new PeerSnapshotException("Failed to fetch snapshot from peer: " + properties.peerUrl(), e);
+        } catch (RestClientException e) {
+            throw new PeerSnapshotException("Failed to fetch snapshot from peer: " + properties.peerUrl(), e);
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PeerSnapshotException("Interrupted while waiting for peer: " + properties.peerUrl(), e);
+        }
+    }
+
+    private RestClient createRestClient(RestClient.Builder restClientBuilder) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.timeout())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.timeout());
+
+        return restClientBuilder.clone()
+                .baseUrl(properties.peerUrl())
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    /**
+     * The peer may become available shortly, so the request is worth retrying.
+     */
+    private static class PeerUnavailableException extends PeerSnapshotException {
+        PeerUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -1,19 +1,29 @@
 package com.akashgill3.githubcrawler.github.service;
 
 import com.akashgill3.githubcrawler.github.model.Principle;
+import com.akashgill3.githubcrawler.github.model.PrincipleSnapshot;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class PrincipleCache {
     private final ConcurrentMap<String, Principle> principles = new ConcurrentHashMap<>();
+    // Local write counter; replicas restored from a peer inherit the peer's count
+    private final AtomicLong generation = new AtomicLong();
+    private volatile String commitId;
+    // Orders the updates that record a commit id, so one that finishes late cannot move it backwards
+    private final AtomicLong updateSequence = new AtomicLong();
+    private long commitSequence; // guarded by this
+    private volatile boolean ready;
 
     public void put(String name, Principle principle) {
         principles.put(name, principle);
+        generation.incrementAndGet();
     }
 
     public Principle get(String name) {
@@ -30,17 +40,89 @@ public class PrincipleCache {
 
     public void putAll(Map<String, Principle> updatedPrinciples) {
         principles.putAll(updatedPrinciples);
+        generation.incrementAndGet();
     }
 
     public void remove(Set<String> principleNames) {
         principleNames.forEach(principles::remove);
+        generation.incrementAndGet();
     }
 
     public void clear() {
         principles.clear();
+        generation.incrementAndGet();
     }
 
     public int size() {
         return principles.size();
     }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * Starts an update that will record the commit it indexed.
+     *
+     * @return The ticket to pass to {@link #recordCommit(long, String)}
+     */
+    public long beginUpdate() {
+        return updateSequence.incrementAndGet();
+    }
+
+    /**
+     * Records the commit an update indexed, unless an update that started later has already recorded its own.
+     *
+     * @param update   The ticket returned by {@link #beginUpdate()}
+     * @param commitId The commit the update indexed
+     * @return true if the commit id was recorded
+     */
+    public synchronized boolean recordCommit(long update, String commitId) {
+        if (update < commitSequence) {
+            return false;
+        }
+        commitSequence = update;
+        this.commitId = commitId;
+        return true;
+    }
+
+    /**
+     * Whether the initial index is complete, either crawled from GitHub or restored from a peer.
+     * Until then the cache may only hold some of the principles.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        this.ready = true;
+    }
+
+    /**
+     * Captures the current index together with its generation and commit id.
+     */
+    public PrincipleSnapshot snapshot() {
+        // Read the generation first so it never counts a write the copied map is missing
+        long currentGeneration = generation.get();
+        return new PrincipleSnapshot(currentGeneration, commitId, getAll());
+    }
+
+    /**
+     * Replaces the index with a snapshot taken from another instance, adopting its generation and commit id.
+     * The peer only serves complete snapshots, so the cache is ready afterwards.
+     * <p>
+     * This discards every earlier write, so it must run before any other update; GitHubService
+     * holds back webhook reindexing until the restore has finished.
+     */
+    public synchronized void restore(PrincipleSnapshot snapshot) {
+        principles.clear();
+        principles.putAll(snapshot.principles());
+        commitId = snapshot.commitId();
+        generation.set(snapshot.generation());
+        ready = true;
+    }
 }
@@ -0,0 +1,242 @@
+package com.akashgill3.githubcrawler.github.service;
+
+import com.akashgill3.githubcrawler.github.model.*;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes the principle index as a compact, gzipped binary snapshot so replicas
+ * can bootstrap from a peer instead of crawling GitHub.
+ * <p>
+ * Layout: magic, format version, generation, commit id, then the principles with
+ * their practises written depth first. Strings, lists and maps are length prefixed,
+ * with a length of -1 marking null.
+ */
+@Component
+public class PrincipleSnapshotCodec {
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+    private static final byte VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+    // Far above any markdown file, but keeps a corrupt length from exhausting the heap
+    private static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+    // Bounds recursion through sub-practises so a hostile stream cannot overflow the stack
+    private static final int MAX_PRACTISE_DEPTH = 64;
+
+    /**
+     * Writes the snapshot to the given stream. The stream is not closed.
+     *
+     * @param snapshot The snapshot to encode
+     * @param out      The stream to write to
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(PrincipleSnapshot snapshot, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip));
+
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(snapshot.generation());
+        writeString(data, snapshot.commitId());
+
+        data.writeInt(snapshot.principles().size());
+        for (Map.Entry<String, Principle> entry : snapshot.principles().entrySet()) {
+            writeString(data, entry.getKey());
+            writePrinciple(data, entry.getValue());
+        }
+
+        data.flush();
+        gzip.finish();
+    }
+
+    /**
+     * Reads a snapshot previously produced by {@link #write(PrincipleSnapshot, OutputStream)}.
+     *
+     * @param in The stream to read from
+     * @return The decoded snapshot
+     * @throws IOException if the stream is truncated or not a snapshot of a supported version
+     */
+    public PrincipleSnapshot read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a principle snapshot");
+        }
+        byte version = data.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        long generation = data.readLong();
+        String commitId = readString(data);
+
+        int count = readLength(data);
+        if (count == NULL_LENGTH) {
+            throw new IOException("Corrupt snapshot, missing principles");
+        }
+        // Counts are untrusted, so collections grow as entries arrive instead of being pre-sized
+        Map<String, Principle> principles = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            principles.put(readKey(data), readPrinciple(data));
+        }
+
+        return new PrincipleSnapshot(generation, commitId, principles);
+    }
+
+    private void writePrinciple(DataOutputStream data, Principle principle) throws IOException {
+        writeString(data, principle.content());
+
+        PrincipleMetadata metadata = principle.metadata();
+        data.writeBoolean(metadata != null);
+        if (metadata != null) {
+            writeString(data, metadata.name());
+            writeString(data, metadata.owner());
+            writeString(data, metadata.value());
+            writeStrings(data, metadata.tags());
+        }
+
+        writePractises(data, principle.practises());
+    }
+
+    private Principle readPrinciple(DataInputStream data) throws IOException {
+        String content = readString(data);
+
+        PrincipleMetadata metadata = null;
+        if (data.readBoolean()) {
+            metadata = new PrincipleMetadata(readString(data), readString(data), readString(data), readStrings(data));
+        }
+
+        return new Principle(content, metadata, readPractises(data, 1));
+    }
+
+    private void writePractises(DataOutputStream data, Map<String, Practise> practises) throws IOException {
+        if (practises == null) {
+            data.writeInt(NULL_LENGTH);
+            return;
+        }
+        data.writeInt(practises.size());
+        for (Map.Entry<String, Practise> entry : practises.entrySet()) {
+            writeString(data, entry.getKey());
+            writePractise(data, entry.getValue());
+        }
+    }
+
+    private Map<String, Practise> readPractises(DataInputStream data, int depth) throws IOException {
+        int count = readLength(data);
+        if (count == NULL_LENGTH) {
+            return null;
+        }
+        if (count > 0 && depth > MAX_PRACTISE_DEPTH) {
+            throw new IOException("Corrupt snapshot, practises nested deeper than " + MAX_PRACTISE_DEPTH);
+        }
+        Map<String, Practise> practises = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            practises.put(readKey(data), readPractise(data, depth));
+        }
+        return practises;
+    }
+
+    private void writePractise(DataOutputStream data, Practise practise) throws IOException {
+        writeString(data, practise.content());
+
+        PractiseMetadata metadata = practise.metadata();
+        data.writeBoolean(metadata != null);
+        if (metadata != null) {
+            writeString(data, metadata.name());
+            writeString(data, metadata.owner());
+            writeString(data, metadata.metrics());
+            writeStrings(data, metadata.tags());
+        }
+
+        writePractises(data, practise.subPractises());
+    }
+
+    private Practise readPractise(DataInputStream data, int depth) throws IOException {
+        String content = readString(data);
+
+        PractiseMetadata metadata = null;
+        if (data.readBoolean()) {
+            metadata = new PractiseMetadata(readString(data), readString(data), readString(data), readStrings(data));
+        }
+
+        return new Practise(content, metadata, readPractises(data, depth + 1));
+    }
+
+    private void writeStrings(DataOutputStream data, List<String> values) throws IOException {
+        if (values == null) {
+            data.writeInt(NULL_LENGTH);
+            return;
+        }
+        data.writeInt(values.size());
+        for (String value : values) {
+            writeString(data, value);
+        }
+    }
+
+    private List<String> readStrings(DataInputStream data) throws IOException {
+        int count = readLength(data);
+        if (count == NULL_LENGTH) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(readString(data));
+        }
+        return values;
+    }
+
+    /**
+     * Writes a length prefixed UTF-8 string. Unlike {@link DataOutputStream#writeUTF(String)}
+     * this is not limited to 64KB, which markdown content can exceed.
+     */
+    private void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Reads a map key, which the cache cannot hold as null.
+     */
+    private String readKey(DataInputStream data) throws IOException {
+        String key = readString(data);
+        if (key == null) {
+            throw new IOException("Corrupt snapshot, null key");
+        }
+        return key;
+    }
+
+    private String readString(DataInputStream data) throws IOException {
+        int length = readLength(data);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupt snapshot, string length exceeds limit: " + length);
+        }
+        // readNBytes reads in chunks, so a truncated stream fails without allocating the full claimed length
+        byte[] bytes = data.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Corrupt snapshot, truncated string");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readLength(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < NULL_LENGTH) {
+            throw new IOException("Corrupt snapshot, negative length: " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,176 @@
+package com.akashgill3.githubcrawler;
+
+import com.akashgill3.githubcrawler.github.exception.GitHubClientException;
+import com.akashgill3.githubcrawler.github.model.Principle;
+import com.akashgill3.githubcrawler.github.model.PrincipleSnapshot;
+import com.akashgill3.githubcrawler.github.service.GitHubClient;
+import com.akashgill3.githubcrawler.github.service.PrincipleCache;
+import com.akashgill3.githubcrawler.github.service.PrincipleSnapshotCodec;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs this context as the peer and boots a second instance against it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import({ReplicaBootstrapTests.OfflineGitHub.class, ReplicaBootstrapTests.SnapshotRequests.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReplicaBootstrapTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PrincipleCache principleCache;
+
+	@Autowired
+	private PrincipleSnapshotCodec codec;
+
+	@Autowired
+	private SnapshotRequestCounter snapshotRequests;
+
+	@Test
+	void snapshotUnavailableUntilInitialIndexCompletes() {
+		principleCache.put("principle", principle("partial"));
+
+		HttpStatus status = RestClient.create(peerUrl()).get()
+				.uri("/api/snapshot")
+				.exchange((request, response) -> HttpStatus.valueOf(response.getStatusCode().value()));
+
+		assertThat(status).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	@Test
+	void snapshotServedWithGenerationAndCommitOnceIndexed() {
+		principleCache.put("principle", principle("content"));
+		principleCache.recordCommit(principleCache.beginUpdate(), "abc123");
+		principleCache.markReady();
+
+		PrincipleSnapshot snapshot = RestClient.create(peerUrl()).get()
+				.uri("/api/snapshot")
+				.exchange((request, response) -> {
+					assertThat(response.getStatusCode().value()).isEqualTo(200);
+					assertThat(response.getHeaders().getFirst("X-Snapshot-Generation")).isEqualTo("1");
+					assertThat(response.getHeaders().getFirst("X-Snapshot-Commit")).isEqualTo("abc123");
+					try (InputStream body = response.getBody()) {
+						return codec.read(body);
+					}
+				});
+
+		assertThat(snapshot).isEqualTo(new PrincipleSnapshot(1, "abc123", Map.of("principle", principle("content"))));
+	}
+
+	@Test
+	void replicaWaitsForPeerToFinishIndexingThenBootstraps() throws InterruptedException {
+		principleCache.put("principle", principle("content"));
+		principleCache.recordCommit(principleCache.beginUpdate(), "abc123");
+
+		try (ConfigurableApplicationContext replica =
+					 new SpringApplicationBuilder(GithubCrawlerApplication.class, OfflineGitHub.class)
+							 .properties(
+									 "server.port=0",
+									 "replica.peer-url=" + peerUrl(),
+									 "replica.retries=100",
+									 "replica.retry-interval=50ms",
+									 "replica.max-retry-interval=100ms")
+							 .run()) {
+			PrincipleCache replicaCache = replica.getBean(PrincipleCache.class);
+
+			// Several 503s prove the replica keeps asking while the peer is still indexing
+			await(() -> snapshotRequests.count() >= 3);
+			assertThat(replicaCache.isReady()).isFalse();
+			principleCache.markReady();
+
+			await(replicaCache::isReady);
+			assertThat(replicaCache.getAll()).isEqualTo(principleCache.getAll());
+			assertThat(replicaCache.getCommitId()).isEqualTo("abc123");
+			assertThat(replicaCache.getGeneration()).isEqualTo(principleCache.getGeneration());
+		}
+	}
+
+	private String peerUrl() {
+		return "http://localhost:" + port;
+	}
+
+	private static Principle principle(String content) {
+		return new Principle(content, null, Map.of());
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+		while (!condition.getAsBoolean() && Instant.now().isBefore(deadline)) {
+			Thread.sleep(50);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+
+	/**
+	 * Fails the startup crawl at its first GitHub call, so neither instance ever reaches GitHub.
+	 */
+	static class OfflineGitHub {
+
+		@Bean
+		@Primary
+		GitHubClient offlineGitHubClient() {
+			GitHubClient client = mock(GitHubClient.class);
+			when(client.getRateLimit()).thenThrow(new GitHubClientException("offline"));
+			return client;
+		}
+	}
+
+	static class SnapshotRequests {
+
+		@Bean
+		SnapshotRequestCounter snapshotRequestCounter() {
+			return new SnapshotRequestCounter();
+		}
+	}
+
+	/**
+	 * Counts the snapshot requests the peer receives.
+	 */
+	static class SnapshotRequestCounter implements Filter {
+		private final AtomicInteger requests = new AtomicInteger();
+
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+				throws IOException, ServletException {
+			if ("/api/snapshot".equals(((HttpServletRequest) request).getRequestURI())) {
+				requests.incrementAndGet();
+			}
+			chain.doFilter(request, response);
+		}
+
+		int count() {
+			return requests.get();
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.akashgill3.githubcrawler.github.service;
+
+import com.akashgill3.githubcrawler.github.exception.GitHubClientException;
+import com.akashgill3.githubcrawler.github.exception.PeerSnapshotException;
+import com.akashgill3.githubcrawler.github.model.Principle;
+import com.akashgill3.githubcrawler.github.model.PrincipleSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHContent;
+import org.kohsuke.github.GHRateLimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class GitHubServiceTest {
+
+	private final GitHubClient gitHubClient = mock(GitHubClient.class);
+	private final PeerSnapshotClient peerSnapshotClient = mock(PeerSnapshotClient.class);
+	private final PrincipleCache principleCache = new PrincipleCache();
+	// Lets awaitTasks wait for the tasks the service submits from within its own tasks
+	private final ForkJoinPool executorService = new ForkJoinPool(4);
+	private final GitHubService gitHubService =
+			new GitHubService(gitHubClient, new ObjectMapper(), principleCache, executorService, peerSnapshotClient);
+
+	@BeforeEach
+	void stopCrawlEarly() {
+		// Fail the crawl at its first GitHub call so fallback tests only observe that it started
+		when(gitHubClient.getRateLimit()).thenThrow(new GitHubClientException("offline"));
+	}
+
+	@Test
+	void bootstrapsFromPeerWithoutCrawling() {
+		PrincipleSnapshot snapshot =
+				new PrincipleSnapshot(5, "abc123", Map.of("principle", new Principle("content", null, Map.of())));
+		when(peerSnapshotClient.isEnabled()).thenReturn(true);
+		when(peerSnapshotClient.fetchSnapshot()).thenReturn(snapshot);
+
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		assertThat(principleCache.isReady()).isTrue();
+		assertThat(principleCache.getAll()).isEqualTo(snapshot.principles());
+		assertThat(principleCache.getCommitId()).isEqualTo("abc123");
+		verifyNoInteractions(gitHubClient);
+	}
+
+	@Test
+	void fallsBackToCrawlingWhenPeerFails() {
+		when(peerSnapshotClient.isEnabled()).thenReturn(true);
+		when(peerSnapshotClient.fetchSnapshot()).thenThrow(new PeerSnapshotException("peer unavailable"));
+
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		verify(gitHubClient).init();
+		verify(gitHubClient).getRateLimit();
+		assertThat(principleCache.isReady()).isFalse();
+	}
+
+	@Test
+	void fallsBackToCrawlingOnUnexpectedBootstrapFailure() {
+		when(peerSnapshotClient.isEnabled()).thenReturn(true);
+		when(peerSnapshotClient.fetchSnapshot()).thenThrow(new IllegalStateException("unexpected"));
+
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		verify(gitHubClient).init();
+		assertThat(principleCache.isReady()).isFalse();
+	}
+
+	@Test
+	void crawlsWithoutAskingPeerWhenNoneConfigured() {
+		when(peerSnapshotClient.isEnabled()).thenReturn(false);
+
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		verify(peerSnapshotClient, never()).fetchSnapshot();
+		verify(gitHubClient).init();
+	}
+
+	@Test
+	void becomesReadyWhenEveryPrincipleIndexes() {
+		stubRepository("a", "b");
+		when(gitHubClient.getHeadCommitSha()).thenReturn("abc123");
+
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		assertThat(principleCache.isReady()).isTrue();
+		assertThat(principleCache.getCommitId()).isEqualTo("abc123");
+		assertThat(principleCache.getAll()).containsOnlyKeys("a", "b");
+	}
+
+	@Test
+	void staysUnreadyWhenAPrincipleFailsToIndex() {
+		stubRepository("a", "b");
+		when(gitHubClient.getFileContent("b/b.json")).thenThrow(new GitHubClientException("boom"));
+
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		assertThat(principleCache.isReady()).isFalse();
+		assertThat(principleCache.getAll()).containsOnlyKeys("a");
+	}
+
+	@Test
+	void reindexKeepsPreviousCommitWhenAPrincipleFails() {
+		stubRepository("a", "b");
+		when(gitHubClient.getHeadCommitSha()).thenReturn("abc123");
+		gitHubService.indexOnStartup();
+		awaitTasks();
+		when(gitHubClient.getFileContent("b/b.json")).thenThrow(new GitHubClientException("boom"));
+
+		gitHubService.reindexPrinciples(Set.of("a", "b"), "def456");
+		awaitTasks();
+
+		assertThat(principleCache.getCommitId()).isEqualTo("abc123");
+	}
+
+	@Test
+	void reindexRecordsPushedCommitWithoutLookingUpHead() {
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		gitHubService.reindexPrinciples(Set.of(), "abc123");
+		awaitTasks();
+
+		assertThat(principleCache.getCommitId()).isEqualTo("abc123");
+		verify(gitHubClient, never()).getHeadCommitSha();
+	}
+
+	@Test
+	void replaysPushReceivedDuringBootstrapOverRestoredSnapshot() {
+		stubRepository("a");
+		when(gitHubClient.getFileContent("a/a.md")).thenReturn("# pushed");
+		PrincipleSnapshot snapshot =
+				new PrincipleSnapshot(5, "abc123", Map.of("a", new Principle("# peer", null, Map.of())));
+		when(peerSnapshotClient.isEnabled()).thenReturn(true);
+		when(peerSnapshotClient.fetchSnapshot()).thenReturn(snapshot);
+
+		// The push lands before the peer's older snapshot has been restored
+		gitHubService.reindexPrinciples(Set.of("a"), "def456");
+		gitHubService.indexOnStartup();
+		awaitTasks();
+
+		assertThat(principleCache.get("a").content()).isEqualTo("# pushed");
+		assertThat(principleCache.getCommitId()).isEqualTo("def456");
+	}
+
+	private void stubRepository(String... principleNames) {
+		doReturn(mock(GHRateLimit.class)).when(gitHubClient).getRateLimit();
+		List<GHContent> rootContent = new ArrayList<>();
+		for (String name : principleNames) {
+			GHContent directory = mock(GHContent.class);
+			when(directory.isDirectory()).thenReturn(true);
+			when(directory.getPath()).thenReturn(name);
+			when(directory.getName()).thenReturn(name);
+			rootContent.add(directory);
+
+			when(gitHubClient.getFileContent(name + "/" + name + ".json")).thenReturn("{}");
+			when(gitHubClient.getFileContent(name + "/" + name + ".md")).thenReturn("# " + name);
+			when(gitHubClient.getDirectoryContent(name)).thenReturn(List.of());
+		}
+		when(gitHubClient.getRootContent()).thenReturn(rootContent);
+	}
+
+	private void awaitTasks() {
+		assertThat(executorService.awaitQuiescence(5, TimeUnit.SECONDS)).isTrue();
+	}
+}
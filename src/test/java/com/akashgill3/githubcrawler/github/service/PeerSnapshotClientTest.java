@@ -0,0 +1,159 @@
+package com.akashgill3.githubcrawler.github.service;
+
+import com.akashgill3.githubcrawler.github.config.ReplicaProperties;
+import com.akashgill3.githubcrawler.github.exception.PeerSnapshotException;
+import com.akashgill3.githubcrawler.github.model.Principle;
+import com.akashgill3.githubcrawler.github.model.PrincipleSnapshot;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PeerSnapshotClientTest {
+
+	private static final PrincipleSnapshot SNAPSHOT =
+			new PrincipleSnapshot(3, "abc123", Map.of("principle", new Principle("content", null, Map.of())));
+
+	private final PrincipleSnapshotCodec codec = new PrincipleSnapshotCodec();
+	private final AtomicInteger requests = new AtomicInteger();
+	private HttpServer peer;
+
+	@BeforeEach
+	void startPeer() throws IOException {
+		peer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		peer.start();
+	}
+
+	@AfterEach
+	void stopPeer() {
+		peer.stop(0);
+	}
+
+	@Test
+	void fetchesSnapshotFromPeer() {
+		servePeer(this::sendSnapshot);
+
+		assertThat(client(peerUrl(), 0).fetchSnapshot()).isEqualTo(SNAPSHOT);
+	}
+
+	@Test
+	void retriesWhilePeerIsIndexing() {
+		servePeer(exchange -> {
+			if (requests.get() < 3) {
+				sendStatus(exchange, 503);
+			} else {
+				sendSnapshot(exchange);
+			}
+		});
+
+		assertThat(client(peerUrl(), 5).fetchSnapshot()).isEqualTo(SNAPSHOT);
+		assertThat(requests).hasValue(3);
+	}
+
+	@Test
+	void givesUpWhenPeerStaysUnavailable() {
+		servePeer(exchange -> sendStatus(exchange, 503));
+
+		assertThatThrownBy(() -> client(peerUrl(), 2).fetchSnapshot())
+				.isInstanceOf(PeerSnapshotException.class);
+		assertThat(requests).hasValue(3);
+	}
+
+	@Test
+	void capsBackoffBetweenRetries() {
+		servePeer(exchange -> sendStatus(exchange, 503));
+		PeerSnapshotClient client = client(peerUrl(), 8, Duration.ofMillis(10), Duration.ofMillis(20));
+
+		// Uncapped, eight doublings from 10ms would sleep for more than 2.5s
+		Instant start = Instant.now();
+		assertThatThrownBy(client::fetchSnapshot).isInstanceOf(PeerSnapshotException.class);
+
+		assertThat(Duration.between(start, Instant.now())).isLessThan(Duration.ofMillis(1500));
+		assertThat(requests).hasValue(9);
+	}
+
+	@Test
+	void givesUpWhenPeerIsNotListening() throws IOException {
+		int unusedPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			unusedPort = socket.getLocalPort();
+		}
+
+		assertThatThrownBy(() -> client("http://localhost:" + unusedPort, 2).fetchSnapshot())
+				.isInstanceOf(PeerSnapshotException.class);
+	}
+
+	@Test
+	void doesNotRetryCorruptSnapshot() {
+		servePeer(exchange -> sendBody(exchange, "not a snapshot".getBytes(StandardCharsets.UTF_8)));
+
+		assertThatThrownBy(() -> client(peerUrl(), 5).fetchSnapshot())
+				.isInstanceOf(PeerSnapshotException.class);
+		assertThat(requests).hasValue(1);
+	}
+
+	@Test
+	void doesNotRetryServerError() {
+		servePeer(exchange -> sendStatus(exchange, 500));
+
+		assertThatThrownBy(() -> client(peerUrl(), 5).fetchSnapshot())
+				.isInstanceOf(PeerSnapshotException.class);
+		assertThat(requests).hasValue(1);
+	}
+
+	private PeerSnapshotClient client(String peerUrl, int retries) {
+		return client(peerUrl, retries, Duration.ofMillis(10), Duration.ofMillis(20));
+	}
+
+	private PeerSnapshotClient client(String peerUrl, int retries, Duration retryInterval, Duration maxRetryInterval) {
+		ReplicaProperties properties =
+				new ReplicaProperties(peerUrl, Duration.ofSeconds(2), retries, retryInterval, maxRetryInterval);
+		return new PeerSnapshotClient(properties, RestClient.builder(), codec);
+	}
+
+	private String peerUrl() {
+		return "http://localhost:" + peer.getAddress().getPort();
+	}
+
+	private void servePeer(HttpHandler handler) {
+		peer.createContext("/api/snapshot", exchange -> {
+			requests.incrementAndGet();
+			handler.handle(exchange);
+		});
+	}
+
+	private void sendSnapshot(HttpExchange exchange) throws IOException {
+		exchange.sendResponseHeaders(200, 0);
+		try (OutputStream body = exchange.getResponseBody()) {
+			codec.write(SNAPSHOT, body);
+		}
+	}
+
+	private static void sendBody(HttpExchange exchange, byte[] bytes) throws IOException {
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream body = exchange.getResponseBody()) {
+			body.write(bytes);
+		}
+	}
+
+	private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+		exchange.sendResponseHeaders(status, -1);
+		exchange.close();
+	}
+}
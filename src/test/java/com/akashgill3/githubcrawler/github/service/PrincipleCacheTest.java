@@ -0,0 +1,79 @@
+package com.akashgill3.githubcrawler.github.service;
+
+import com.akashgill3.githubcrawler.github.model.Principle;
+import com.akashgill3.githubcrawler.github.model.PrincipleSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipleCacheTest {
+
+	private final PrincipleCache cache = new PrincipleCache();
+
+	@Test
+	void everyWriteBumpsGeneration() {
+		cache.put("a", principle("a"));
+		assertThat(cache.getGeneration()).isEqualTo(1);
+
+		cache.putAll(Map.of("b", principle("b"), "c", principle("c")));
+		assertThat(cache.getGeneration()).isEqualTo(2);
+
+		cache.remove(Set.of("a"));
+		assertThat(cache.getGeneration()).isEqualTo(3);
+
+		cache.clear();
+		assertThat(cache.getGeneration()).isEqualTo(4);
+	}
+
+	@Test
+	void notReadyUntilMarked() {
+		cache.put("a", principle("a"));
+		assertThat(cache.isReady()).isFalse();
+
+		cache.markReady();
+		assertThat(cache.isReady()).isTrue();
+	}
+
+	@Test
+	void snapshotCapturesGenerationAndCommit() {
+		cache.put("a", principle("a"));
+		cache.recordCommit(cache.beginUpdate(), "abc123");
+
+		PrincipleSnapshot snapshot = cache.snapshot();
+
+		assertThat(snapshot.generation()).isEqualTo(1);
+		assertThat(snapshot.commitId()).isEqualTo("abc123");
+		assertThat(snapshot.principles()).isEqualTo(Map.of("a", principle("a")));
+	}
+
+	@Test
+	void laterUpdateKeepsItsCommitWhenEarlierOneFinishesLast() {
+		long earlier = cache.beginUpdate();
+		long later = cache.beginUpdate();
+
+		assertThat(cache.recordCommit(later, "newer")).isTrue();
+		assertThat(cache.recordCommit(earlier, "older")).isFalse();
+
+		assertThat(cache.getCommitId()).isEqualTo("newer");
+	}
+
+	@Test
+	void restoreReplacesContentAndAdoptsPeerState() {
+		cache.put("stale", principle("stale"));
+		PrincipleSnapshot snapshot = new PrincipleSnapshot(7, "abc123", Map.of("fresh", principle("fresh")));
+
+		cache.restore(snapshot);
+
+		assertThat(cache.getAll()).isEqualTo(snapshot.principles());
+		assertThat(cache.getGeneration()).isEqualTo(7);
+		assertThat(cache.getCommitId()).isEqualTo("abc123");
+		assertThat(cache.isReady()).isTrue();
+	}
+
+	private static Principle principle(String content) {
+		return new Principle(content, null, Map.of());
+	}
+}
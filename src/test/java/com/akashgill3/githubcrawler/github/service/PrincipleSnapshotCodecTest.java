@@ -0,0 +1,115 @@
+package com.akashgill3.githubcrawler.github.service;
+
+import com.akashgill3.githubcrawler.github.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrincipleSnapshotCodecTest {
+
+	private final PrincipleSnapshotCodec codec = new PrincipleSnapshotCodec();
+
+	@Test
+	void roundTripsNestedPrinciples() throws IOException {
+		Practise subPractise = new Practise("sub", new PractiseMetadata("Sub", "owner", "metric", List.of("a")), Map.of());
+		Practise practise = new Practise("x".repeat(70_000), new PractiseMetadata("Practise", null, "metric", null),
+				Map.of("sub", subPractise));
+		Principle principle = new Principle("# Principle", new PrincipleMetadata("Principle", "owner", "value", List.of("a", "b")),
+				Map.of("practise", practise));
+		Principle withoutMetadata = new Principle("no metadata", null, Map.of());
+		PrincipleSnapshot snapshot = new PrincipleSnapshot(42, "abc123",
+				Map.of("principle", principle, "bare", withoutMetadata));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.write(snapshot, out);
+		PrincipleSnapshot decoded = codec.read(new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(decoded).isEqualTo(snapshot);
+	}
+
+	@Test
+	void rejectsForeignPayload() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(new byte[]{1, 2, 3, 4, 5});
+		}
+
+		assertThatThrownBy(() -> codec.read(new ByteArrayInputStream(out.toByteArray())))
+				.isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void rejectsOversizedStringLength() throws IOException {
+		byte[] payload = snapshotHeaderWithCommitLength(Integer.MAX_VALUE);
+
+		assertThatThrownBy(() -> codec.read(new ByteArrayInputStream(payload)))
+				.isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void rejectsTruncatedString() throws IOException {
+		byte[] payload = snapshotHeaderWithCommitLength(1_000);
+
+		assertThatThrownBy(() -> codec.read(new ByteArrayInputStream(payload)))
+				.isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void rejectsNullKey() throws IOException {
+		Map<String, Principle> principles = new HashMap<>();
+		principles.put(null, new Principle("content", null, Map.of()));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.write(new PrincipleSnapshot(1, null, principles), out);
+
+		assertThatThrownBy(() -> codec.read(new ByteArrayInputStream(out.toByteArray())))
+				.isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void rejectsPractisesNestedTooDeep() throws IOException, InterruptedException {
+		Practise practise = new Practise("leaf", null, Map.of());
+		for (int i = 0; i < 10_000; i++) {
+			practise = new Practise("level", null, Map.of("sub", practise));
+		}
+		Principle principle = new Principle("content", null, Map.of("practise", practise));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Thread writer = new Thread(null, () -> {
+			try {
+				codec.write(new PrincipleSnapshot(1, null, Map.of("principle", principle)), out);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, "deep-writer", 256 * 1024 * 1024);
+		writer.start();
+		writer.join();
+		assertThat(out.size()).isPositive();
+
+		assertThatThrownBy(() -> codec.read(new ByteArrayInputStream(out.toByteArray())))
+				.isInstanceOf(IOException.class);
+	}
+
+	private static byte[] snapshotHeaderWithCommitLength(int length) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (DataOutputStream data = new DataOutputStream(new GZIPOutputStream(out))) {
+			data.writeInt(0x50534E50);
+			data.writeByte(1);
+			data.writeLong(1);
+			data.writeInt(length);
+			data.write(new byte[]{1, 2, 3});
+		}
+		return out.toByteArray();
+	}
+}